@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.adapter.AdaptableSupport;
+import com.github.peholmst.patterns.adapter.UnsupportedAdapterException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link AdaptableSupport#adapt(Class)} and {@link AdaptableSupport#supportsAdapter(Class)}.
+ * The contended benchmarks read the same instance from all available threads.
+ *
+ * @author petter@vaadin.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptableSupportBenchmark {
+
+    AdaptableSupport adaptableSupport;
+
+    @Setup
+    public void setUp() {
+        adaptableSupport = new AdaptableSupport();
+        adaptableSupport.addAdapter(String.class, "Hello World");
+        adaptableSupport.addAdapter(Integer.class, 42);
+        adaptableSupport.addAdapter(Serializable.class, "Serializable");
+        adaptableSupport.addAdapter(Runnable.class, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+    @Benchmark
+    public boolean supportsAdapterHit() {
+        return adaptableSupport.supportsAdapter(String.class);
+    }
+
+    @Benchmark
+    public boolean supportsAdapterMiss() {
+        return adaptableSupport.supportsAdapter(Callable.class);
+    }
+
+    @Benchmark
+    public String adaptHit() {
+        return adaptableSupport.adapt(String.class);
+    }
+
+    @Benchmark
+    public Object adaptMiss() {
+        try {
+            return adaptableSupport.adapt(Callable.class);
+        } catch (UnsupportedAdapterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean supportsAdapterHitContended() {
+        return adaptableSupport.supportsAdapter(String.class);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String adaptHitContended() {
+        return adaptableSupport.adapt(String.class);
+    }
+}
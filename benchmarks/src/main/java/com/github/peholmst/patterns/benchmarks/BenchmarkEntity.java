@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.builders.GenerateBuilder;
+import com.github.peholmst.patterns.entities.AbstractEntity;
+
+/**
+ * Entity used by the entity benchmarks. Its {@code BenchmarkEntityBuilder} is generated at compile time,
+ * whereas {@link ReflectiveBenchmarkEntityBuilder} is written by hand and creates its entities using reflection.
+ *
+ * @author petter@vaadin.com
+ */
+@GenerateBuilder
+public class BenchmarkEntity extends AbstractEntity {
+
+    private String name;
+
+    public BenchmarkEntity() {
+    }
+
+    /**
+     * Creates a persistent entity with the specified {@code id}.
+     */
+    public BenchmarkEntity(Long id) {
+        setId(id);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
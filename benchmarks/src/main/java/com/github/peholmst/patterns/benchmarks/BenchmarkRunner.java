@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Main class of the benchmarks JAR. Delegates to {@link Main}, but adds {@code -rf json} unless a result
+ * format has been given, so that the results are written as JSON to {@code jmh-result.json} by default.
+ *
+ * @author petter@vaadin.com
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws IOException {
+        Main.main(hasResultFormat(args) ? args : withJsonResultFormat(args));
+    }
+
+    private static boolean hasResultFormat(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("-rf") && !arg.startsWith("-rff")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] withJsonResultFormat(String[] args) {
+        final String[] result = new String[args.length + 2];
+        result[0] = "-rf";
+        result[1] = "json";
+        System.arraycopy(args, 0, result, 2, args.length);
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.entities.AbstractEntityBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for creating and copying entities using {@link AbstractEntityBuilder}s, comparing the
+ * reflective constructors with the builder generated at compile time.
+ *
+ * @author petter@vaadin.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBuilderBenchmark {
+
+    BenchmarkEntity original;
+
+    @Setup
+    public void setUp() {
+        original = new BenchmarkEntity(1L);
+        original.setName("Original");
+    }
+
+    @Benchmark
+    public BenchmarkEntity reflectiveBuild() {
+        return new ReflectiveBenchmarkEntityBuilder().withName("New").build();
+    }
+
+    @Benchmark
+    public BenchmarkEntity reflectiveCopy() {
+        return new ReflectiveBenchmarkEntityBuilder(original).withName("Copy").build();
+    }
+
+    @Benchmark
+    public BenchmarkEntity generatedBuild() {
+        return new BenchmarkEntityBuilder().withName("New").build();
+    }
+
+    @Benchmark
+    public BenchmarkEntity generatedCopy() {
+        return new BenchmarkEntityBuilder(original).withName("Copy").build();
+    }
+}
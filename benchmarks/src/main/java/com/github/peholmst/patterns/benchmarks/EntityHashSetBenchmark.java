@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.entities.AbstractEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link AbstractEntity#hashCode()} and {@link AbstractEntity#equals(Object)} when entities
+ * are stored in large {@link HashSet}s. Persistent entities hash on their IDs, transient entities on their
+ * identity hash codes.
+ *
+ * @author petter@vaadin.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityHashSetBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    List<BenchmarkEntity> persistentEntities;
+    List<BenchmarkEntity> persistentCopies;
+    List<BenchmarkEntity> transientEntities;
+    Set<BenchmarkEntity> persistentSet;
+    Set<BenchmarkEntity> transientSet;
+
+    @Setup
+    public void setUp() {
+        persistentEntities = new ArrayList<>(size);
+        persistentCopies = new ArrayList<>(size);
+        transientEntities = new ArrayList<>(size);
+        for (long i = 0; i < size; ++i) {
+            persistentEntities.add(new BenchmarkEntity(i));
+            persistentCopies.add(new BenchmarkEntity(i));
+            transientEntities.add(new BenchmarkEntity());
+        }
+        persistentSet = new HashSet<>(persistentEntities);
+        transientSet = new HashSet<>(transientEntities);
+    }
+
+    @Benchmark
+    public Set<BenchmarkEntity> addPersistent() {
+        return new HashSet<>(persistentEntities);
+    }
+
+    @Benchmark
+    public Set<BenchmarkEntity> addTransient() {
+        return new HashSet<>(transientEntities);
+    }
+
+    /**
+     * Looks up equal but not identical entities, so that {@code equals} has to compare the IDs.
+     */
+    @Benchmark
+    public int containsPersistent() {
+        int found = 0;
+        for (BenchmarkEntity entity : persistentCopies) {
+            if (persistentSet.contains(entity)) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int containsTransient() {
+        int found = 0;
+        for (BenchmarkEntity entity : transientEntities) {
+            if (transientSet.contains(entity)) {
+                ++found;
+            }
+        }
+        return found;
+    }
+}
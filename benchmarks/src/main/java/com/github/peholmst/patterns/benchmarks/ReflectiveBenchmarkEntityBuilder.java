@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.entities.AbstractEntityBuilder;
+
+/**
+ * Hand written builder for {@link BenchmarkEntity} that relies on the reflective constructors
+ * of {@link AbstractEntityBuilder}.
+ *
+ * @author petter@vaadin.com
+ */
+public class ReflectiveBenchmarkEntityBuilder extends AbstractEntityBuilder<BenchmarkEntity, ReflectiveBenchmarkEntityBuilder> {
+
+    public ReflectiveBenchmarkEntityBuilder() {
+    }
+
+    public ReflectiveBenchmarkEntityBuilder(BenchmarkEntity original) {
+        super(original);
+        if (original != null) {
+            entity.setName(original.getName());
+        }
+    }
+
+    public ReflectiveBenchmarkEntityBuilder withName(String name) {
+        entity.setName(name);
+        return myself();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Minimal {@link ConstraintViolation} implementation, so that the validation benchmarks
+ * do not need a Bean Validation provider.
+ *
+ * @author petter@vaadin.com
+ */
+class StubConstraintViolation implements ConstraintViolation<Object> {
+
+    private final Path propertyPath;
+    private final String messageTemplate;
+
+    StubConstraintViolation(final String propertyPath, String messageTemplate) {
+        this.propertyPath = new Path() {
+            @Override
+            public Iterator<Node> iterator() {
+                return Collections.<Node>emptyList().iterator();
+            }
+
+            @Override
+            public String toString() {
+                return propertyPath;
+            }
+        };
+        this.messageTemplate = messageTemplate;
+    }
+
+    /**
+     * Creates {@code count} violations spread over {@code count / 2} properties (at least one),
+     * so that most properties get more than one message.
+     */
+    static Set<ConstraintViolation<Object>> createViolations(int count) {
+        final Set<ConstraintViolation<Object>> violations = new HashSet<>();
+        final int propertyCount = Math.max(1, count / 2);
+        for (int i = 0; i < count; ++i) {
+            violations.add(new StubConstraintViolation("property" + (i % propertyCount), "message" + i));
+        }
+        return violations;
+    }
+
+    @Override
+    public String getMessage() {
+        return messageTemplate;
+    }
+
+    @Override
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    @Override
+    public Object getRootBean() {
+        return null;
+    }
+
+    @Override
+    public Class<Object> getRootBeanClass() {
+        return Object.class;
+    }
+
+    @Override
+    public Object getLeafBean() {
+        return null;
+    }
+
+    @Override
+    public Path getPropertyPath() {
+        return propertyPath;
+    }
+
+    @Override
+    public Object getInvalidValue() {
+        return null;
+    }
+
+    @Override
+    public ConstraintDescriptor<?> getConstraintDescriptor() {
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.validation.ValidationErrorReporter;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link ValidationErrorReporter#setValidationErrors(java.util.Set)} with varying numbers
+ * of violations and targets. The message interpolator returns the message template as is, so the results
+ * measure the reporter itself rather than the Bean Validation provider.
+ *
+ * @author petter@vaadin.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationErrorReporterBenchmark {
+
+    @Param({"1", "10", "100"})
+    int violationCount;
+
+    @Param({"1", "10"})
+    int targetCount;
+
+    ValidationErrorReporter reporter;
+    Set<ConstraintViolation<Object>> violations;
+
+    static class CountingTarget implements ValidationErrorReporter.Target {
+
+        int messageCount;
+
+        @Override
+        public void clearValidationErrors() {
+            messageCount = 0;
+        }
+
+        @Override
+        public void setValidationErrors(Collection<ValidationErrorReporter.ValidationErrorMessage> errorMessages) {
+            messageCount = errorMessages.size();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        reporter = new ValidationErrorReporter();
+        reporter.setMessageInterpolator(new MessageInterpolator() {
+            @Override
+            public String interpolate(String messageTemplate, Context context) {
+                return messageTemplate;
+            }
+
+            @Override
+            public String interpolate(String messageTemplate, Context context, Locale locale) {
+                return messageTemplate;
+            }
+        });
+        for (int i = 0; i < targetCount; ++i) {
+            reporter.addTarget(new CountingTarget());
+        }
+        violations = StubConstraintViolation.createViolations(violationCount);
+    }
+
+    @Benchmark
+    public void setValidationErrors() {
+        reporter.setValidationErrors(violations);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peholmst.patterns.benchmarks;
+
+import com.github.peholmst.patterns.validation.ValidationException;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for throwing and catching {@link ValidationException}s.
+ *
+ * @author petter@vaadin.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationExceptionBenchmark {
+
+    Set<ConstraintViolation<Object>> violations;
+    Set<ConstraintViolation<Object>> noViolations;
+
+    @Setup
+    public void setUp() {
+        violations = StubConstraintViolation.createViolations(10);
+        noViolations = Collections.emptySet();
+    }
+
+    @Benchmark
+    public Object throwAndCatch() {
+        try {
+            ValidationException.throwIfNonEmpty(violations);
+            return null;
+        } catch (ValidationException ex) {
+            return ex.getViolations();
+        }
+    }
+
+    @Benchmark
+    public Object throwIfNonEmptyWithoutViolations() {
+        ValidationException.throwIfNonEmpty(noViolations);
+        return noViolations;
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.peholmst.patterns.builders;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor that generates builders for classes annotated with
+ * {@link GenerateBuilder}. The generated builders call the constructors,
+ * setters, getters and {@link ValidateOnBuild} hooks of the built class
+ * directly, so building and copying instances involves no reflection.
+ *
+ * @author Petter Holmström
+ */
+public class BuilderProcessor extends AbstractProcessor {
+
+    private static final String ABSTRACT_ENTITY = "com.github.peholmst.patterns.entities.AbstractEntity";
+    private static final String ABSTRACT_ENTITY_BUILDER = "com.github.peholmst.patterns.entities.AbstractEntityBuilder";
+
+    /**
+     * A property of the built class, consisting of a setter and an optional
+     * getter.
+     */
+    private static class Property {
+
+        final String name;
+        final String type;
+        final String setter;
+        final String getter;
+
+        Property(String name, String type, String setter, String getter) {
+            this.name = name;
+            this.type = type;
+            this.setter = setter;
+            this.getter = getter;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateBuilder.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateBuilder.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateBuilder can only be applied to classes");
+            } else {
+                processClass((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void processClass(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@GenerateBuilder cannot be applied to abstract classes");
+            return;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@GenerateBuilder cannot be applied to generic classes");
+            return;
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL
+                && (type.getNestingKind() != NestingKind.MEMBER || !type.getModifiers().contains(Modifier.STATIC))) {
+            error(type, "@GenerateBuilder can only be applied to top level classes and static member classes");
+            return;
+        }
+        if (!isAccessibleType(type)) {
+            error(type, "@GenerateBuilder cannot be applied to private classes or classes nested in private classes");
+            return;
+        }
+        if (!hasAccessibleNoArgConstructor(type)) {
+            error(type, "@GenerateBuilder requires a non-private no-argument constructor");
+            return;
+        }
+        final boolean entity = isEntity(type);
+        final List<Property> properties = findProperties(type, entity);
+        final List<String> validators = findValidators(type);
+        if (validators == null) {
+            return;
+        }
+        try {
+            writeBuilder(type, entity, properties, validators);
+        } catch (IOException ex) {
+            error(type, "Could not write builder: " + ex.getMessage());
+        }
+    }
+
+    private boolean isAccessibleType(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasAccessibleNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEntity(TypeElement type) {
+        final TypeElement abstractEntity = processingEnv.getElementUtils().getTypeElement(ABSTRACT_ENTITY);
+        return abstractEntity != null
+                && processingEnv.getTypeUtils().isSubtype(type.asType(),
+                processingEnv.getTypeUtils().erasure(abstractEntity.asType()));
+    }
+
+    private List<Property> findProperties(TypeElement type, boolean entity) {
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        final List<Property> properties = new ArrayList<Property>();
+        for (ExecutableElement setter : methods) {
+            final String setterName = setter.getSimpleName().toString();
+            if (!setterName.startsWith("set") || setterName.length() == 3
+                    || !Character.isUpperCase(setterName.charAt(3))
+                    || setter.getParameters().size() != 1
+                    || !isAccessibleInstanceMethod(setter, type)
+                    || (entity && isDeclaredIn(setter, ABSTRACT_ENTITY))) {
+                continue;
+            }
+            final String name = setterName.substring(3);
+            final TypeMirror propertyType = memberType(setter, type).getParameterTypes().get(0);
+            final ExecutableElement getter = findGetter(methods, type, name, propertyType);
+            properties.add(new Property(name, propertyType.toString(), setterName,
+                    getter == null ? null : getter.getSimpleName().toString()));
+        }
+        return properties;
+    }
+
+    private ExecutableElement findGetter(List<ExecutableElement> methods, TypeElement type, String name,
+                                         TypeMirror propertyType) {
+        for (ExecutableElement method : methods) {
+            final String methodName = method.getSimpleName().toString();
+            final boolean named = methodName.equals("get" + name)
+                    || (methodName.equals("is" + name) && propertyType.getKind() == TypeKind.BOOLEAN);
+            if (named && method.getParameters().isEmpty() && isAccessibleInstanceMethod(method, type)
+                    && processingEnv.getTypeUtils().isSameType(memberType(method, type).getReturnType(), propertyType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the names of the {@link ValidateOnBuild} methods of
+     * {@code type}, or {@code null} if any of them is invalid. Methods of
+     * superclasses come first, and the methods of each class are returned in
+     * declaration order. A hook that is overridden is only returned once, at
+     * the position of the superclass method.
+     */
+    private List<String> findValidators(TypeElement type) {
+        final LinkedList<TypeElement> hierarchy = new LinkedList<TypeElement>();
+        for (TypeElement t = type; t != null; t = superclassOf(t)) {
+            hierarchy.addFirst(t);
+        }
+        final Set<String> validators = new LinkedHashSet<String>();
+        boolean valid = true;
+        for (TypeElement t : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+                if (method.getAnnotation(ValidateOnBuild.class) == null) {
+                    continue;
+                }
+                if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)
+                        || method.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(method, "@ValidateOnBuild methods must be non-private, non-static and take no arguments");
+                    valid = false;
+                } else if (!isAccessible(method, type)) {
+                    error(type, String.format(
+                            "@ValidateOnBuild method %s.%s() is not accessible from the generated builder in package %s",
+                            t.getQualifiedName(), method.getSimpleName(), packageOf(type)));
+                    valid = false;
+                } else {
+                    validators.add(method.getSimpleName().toString());
+                }
+            }
+        }
+        return valid ? new ArrayList<String>(validators) : null;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private ExecutableType memberType(ExecutableElement method, TypeElement type) {
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), method);
+    }
+
+    private boolean isAccessibleInstanceMethod(ExecutableElement method, TypeElement type) {
+        return !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method, type);
+    }
+
+    /**
+     * Returns whether {@code member} can be accessed from the builder of
+     * {@code type}, which is generated into the package of {@code type}.
+     */
+    private boolean isAccessible(Element member, TypeElement type) {
+        final Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return packageOf(member).equals(packageOf(type));
+    }
+
+    private boolean isDeclaredIn(Element member, String className) {
+        return ((TypeElement) member.getEnclosingElement()).getQualifiedName().contentEquals(className);
+    }
+
+    private String packageOf(Element element) {
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(element);
+        return pkg.getQualifiedName().toString();
+    }
+
+    private String builderSimpleName(TypeElement type) {
+        final StringBuilder sb = new StringBuilder("Builder");
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            sb.insert(0, e.getSimpleName());
+        }
+        return sb.toString();
+    }
+
+    private void writeBuilder(TypeElement type, boolean entity, List<Property> properties,
+                              List<String> validators) throws IOException {
+        final String pkg = packageOf(type);
+        final String builder = builderSimpleName(type);
+        final String built = type.getQualifiedName().toString();
+        final String visibility = type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+        final String instance = entity ? "entity" : "instance";
+
+        final JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                pkg.isEmpty() ? builder : pkg + "." + builder, type);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            if (!pkg.isEmpty()) {
+                out.println("package " + pkg + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Builder for {@link " + built + "}.");
+            out.println(" * <p/>");
+            out.println(" * Generated by {@code " + BuilderProcessor.class.getName() + "}, do not edit.");
+            out.println(" */");
+            if (entity) {
+                out.println(visibility + "class " + builder + " extends " + ABSTRACT_ENTITY_BUILDER
+                        + "<" + built + ", " + builder + "> {");
+                out.println();
+                out.println("    " + visibility + builder + "() {");
+                out.println("        super(new " + built + "(), null);");
+                out.println("    }");
+                out.println();
+                out.println("    " + visibility + builder + "(" + built + " original) {");
+                out.println("        super(new " + built + "(), original);");
+            } else {
+                out.println(visibility + "class " + builder + " {");
+                out.println();
+                out.println("    private final " + built + " instance;");
+                out.println();
+                out.println("    " + visibility + builder + "() {");
+                out.println("        instance = new " + built + "();");
+                out.println("    }");
+                out.println();
+                out.println("    " + visibility + builder + "(" + built + " original) {");
+                out.println("        this();");
+            }
+            final List<Property> copied = new ArrayList<Property>();
+            for (Property property : properties) {
+                if (property.getter != null) {
+                    copied.add(property);
+                }
+            }
+            if (!copied.isEmpty()) {
+                out.println("        if (original != null) {");
+                for (Property property : copied) {
+                    out.println("            " + instance + "." + property.setter
+                            + "(original." + property.getter + "());");
+                }
+                out.println("        }");
+            }
+            out.println("    }");
+
+            for (Property property : properties) {
+                out.println();
+                out.println("    public " + builder + " with" + property.name + "(" + property.type + " value) {");
+                out.println("        " + instance + "." + property.setter + "(value);");
+                out.println("        return this;");
+                out.println("    }");
+            }
+
+            out.println();
+            if (entity) {
+                out.println("    @Override");
+            }
+            out.println("    public " + built + " build() {");
+            for (String validator : validators) {
+                out.println("        " + instance + "." + validator + "();");
+            }
+            out.println("        return " + instance + ";");
+            out.println("    }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.peholmst.patterns.builders;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which {@link BuilderProcessor} should generate a builder
+ * at compile time. The builder is named after the class with a
+ * {@code Builder} suffix and is placed in the same package. It has one
+ * {@code withXxx} method for every accessible {@code setXxx} method of the
+ * class, a no-argument constructor and a copy constructor that copies every
+ * property that also has an accessible getter.
+ * <p/>
+ * The annotated class must be concrete, non-generic and have an accessible
+ * no-argument constructor. If the class extends
+ * {@code com.github.peholmst.patterns.entities.AbstractEntity}, the builder
+ * extends {@code AbstractEntityBuilder} instead of being a standalone class.
+ *
+ * @see ValidateOnBuild
+ * @author Petter Holmström
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateBuilder {
+}
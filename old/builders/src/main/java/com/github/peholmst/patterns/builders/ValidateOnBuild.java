@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.peholmst.patterns.builders;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-argument instance method of a {@link GenerateBuilder} class as a
+ * validation hook. The generated builder invokes all such methods before
+ * returning the instance from {@code build()}, starting with the hooks of the
+ * topmost superclass and calling the hooks of each class in declaration
+ * order. A hook rejects the built instance by throwing an unchecked exception.
+ *
+ * @author Petter Holmström
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface ValidateOnBuild {
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2013 Petter Holmström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.peholmst.patterns.builders;
+
+import com.github.peholmst.patterns.entities.AbstractEntity;
+import com.github.peholmst.patterns.entities.AbstractEntityBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import javax.persistence.Id;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test case for {@link BuilderProcessor}. The sample classes are compiled
+ * with {@link JavaCompiler} and the generated builders are then loaded and
+ * invoked.
+ *
+ * @author Petter Holmström
+ */
+public class BuilderProcessorTest {
+
+    private static final String PERSON = "package sample;\n"
+            + "import com.github.peholmst.patterns.builders.*;\n"
+            + "@GenerateBuilder\n"
+            + "public class Person {\n"
+            + "    private String name;\n"
+            + "    private int age;\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public void setup(String s) { }\n"
+            + "    @ValidateOnBuild void requireName() {\n"
+            + "        if (name == null) throw new IllegalStateException(\"name is required\");\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String CUSTOMER = "package sample;\n"
+            + "import com.github.peholmst.patterns.builders.*;\n"
+            + "import com.github.peholmst.patterns.entities.AbstractEntity;\n"
+            + "@GenerateBuilder\n"
+            + "public class Customer extends AbstractEntity {\n"
+            + "    private String name;\n"
+            + "    public Customer() { }\n"
+            + "    public Customer(Long id, Long version) { setId(id); setOptLockVersion(version); }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File classesDir;
+    File sourcesDir;
+
+    /**
+     * The outcome of compiling a sample class.
+     */
+    class Compilation {
+
+        final boolean success;
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        ClassLoader classLoader;
+
+        Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+        }
+
+        Class<?> loadClass(String className) throws Exception {
+            if (classLoader == null) {
+                classLoader = new URLClassLoader(new URL[]{classesDir.toURI().toURL()},
+                        BuilderProcessorTest.class.getClassLoader());
+            }
+            return classLoader.loadClass(className);
+        }
+
+        String generatedSource(String className) throws IOException {
+            final File file = new File(sourcesDir, className.replace('.', File.separatorChar) + ".java");
+            final Scanner scanner = new Scanner(file, "UTF-8");
+            try {
+                return scanner.useDelimiter("\\A").next();
+            } finally {
+                scanner.close();
+            }
+        }
+    }
+
+    /**
+     * In-memory source file.
+     */
+    static class Source extends SimpleJavaFileObject {
+
+        private final String code;
+
+        Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        classesDir = folder.newFolder("classes");
+        sourcesDir = folder.newFolder("sources");
+    }
+
+    /**
+     * Compiles the specified class into {@link #classesDir}. Classes compiled
+     * by earlier calls are on the class path.
+     */
+    Compilation compile(String className, String code) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        final String classPath = locationOf(GenerateBuilder.class) + File.pathSeparator
+                + locationOf(AbstractEntity.class) + File.pathSeparator
+                + locationOf(Id.class) + File.pathSeparator
+                + classesDir.getPath();
+        final List<String> options = Arrays.asList("-classpath", classPath,
+                "-d", classesDir.getPath(), "-s", sourcesDir.getPath());
+        final JavaCompiler.CompilationTask task = compiler.getTask(null,
+                compiler.getStandardFileManager(diagnostics, Locale.ROOT, Charset.forName("UTF-8")),
+                diagnostics, options, null, Collections.singletonList(new Source(className, code)));
+        task.setProcessors(Collections.singletonList(new BuilderProcessor()));
+        final boolean success = task.call();
+        return new Compilation(success, diagnostics.getDiagnostics());
+    }
+
+    private static String locationOf(Class<?> clazz) throws URISyntaxException {
+        return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    private static Object invoke(Object target, String methodName, Object... args) throws Exception {
+        for (Method method : target.getClass().getMethods()) {
+            if (method.getName().equals(methodName) && method.getParameterTypes().length == args.length) {
+                return method.invoke(target, args);
+            }
+        }
+        throw new NoSuchMethodException(methodName);
+    }
+
+    private static void assertError(Compilation compilation, String message) {
+        assertFalse("Compilation should have failed", compilation.success);
+        for (Diagnostic<? extends JavaFileObject> diagnostic : compilation.diagnostics) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(Locale.ROOT).contains(message)) {
+                return;
+            }
+        }
+        fail("Expected error '" + message + "' but got " + compilation.diagnostics);
+    }
+
+    @Test
+    public void buildPlainClass() throws Exception {
+        final Compilation compilation = compile("sample.Person", PERSON);
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+
+        final Object builder = compilation.loadClass("sample.PersonBuilder").getConstructor().newInstance();
+        invoke(builder, "withName", "Joe Cool");
+        invoke(builder, "withAge", 42);
+        final Object person = invoke(builder, "build");
+
+        assertEquals("Joe Cool", invoke(person, "getName"));
+        assertEquals(42, invoke(person, "getAge"));
+    }
+
+    @Test
+    public void copyPlainClass() throws Exception {
+        final Compilation compilation = compile("sample.Person", PERSON);
+        final Class<?> personClass = compilation.loadClass("sample.Person");
+        final Object original = personClass.getConstructor().newInstance();
+        invoke(original, "setName", "Joe Cool");
+        invoke(original, "setAge", 42);
+
+        final Object builder = compilation.loadClass("sample.PersonBuilder").getConstructor(personClass)
+                .newInstance(original);
+        invoke(builder, "withAge", 43);
+        final Object copy = invoke(builder, "build");
+
+        assertNotSame(original, copy);
+        assertEquals("Joe Cool", invoke(copy, "getName"));
+        assertEquals(43, invoke(copy, "getAge"));
+        assertEquals(42, invoke(original, "getAge"));
+    }
+
+    @Test
+    public void validatorRejectsInvalidInstance() throws Exception {
+        final Compilation compilation = compile("sample.Person", PERSON);
+        final Object builder = compilation.loadClass("sample.PersonBuilder").getConstructor().newInstance();
+        try {
+            invoke(builder, "build");
+            fail("build() should have been rejected by the validator");
+        } catch (InvocationTargetException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+            assertEquals("name is required", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void setterRequiresUpperCaseCharacterAfterSet() throws Exception {
+        final Compilation compilation = compile("sample.Person", PERSON);
+        for (Method method : compilation.loadClass("sample.PersonBuilder").getMethods()) {
+            assertFalse(method.getName().equals("withup"));
+        }
+    }
+
+    @Test
+    public void validatorsOfSuperclassesAreCalledFirst() throws Exception {
+        final Compilation compilation = compile("sample.Derived", "package sample;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "import java.util.*;\n"
+                + "class Base {\n"
+                + "    public final List<String> calls = new ArrayList<String>();\n"
+                + "    @ValidateOnBuild void base() { calls.add(\"base\"); }\n"
+                + "}\n"
+                + "@GenerateBuilder\n"
+                + "public class Derived extends Base {\n"
+                + "    @ValidateOnBuild void second() { calls.add(\"second\"); }\n"
+                + "    @ValidateOnBuild void first() { calls.add(\"first\"); }\n"
+                + "    public List<String> getCalls() { return calls; }\n"
+                + "}\n");
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+
+        final Object derived = invoke(compilation.loadClass("sample.DerivedBuilder").getConstructor().newInstance(), "build");
+
+        assertEquals(Arrays.asList("base", "second", "first"), invoke(derived, "getCalls"));
+    }
+
+    @Test
+    public void validatorsOfPrecompiledSuperclassAreCalled() throws Exception {
+        assertTrue(compile("sample.Base", "package sample;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "import java.util.*;\n"
+                + "public class Base {\n"
+                + "    public final List<String> calls = new ArrayList<String>();\n"
+                + "    @ValidateOnBuild void base() { calls.add(\"base\"); }\n"
+                + "}\n").success);
+        final Compilation compilation = compile("sample.Derived", "package sample;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "@GenerateBuilder\n"
+                + "public class Derived extends Base {\n"
+                + "    @ValidateOnBuild void derived() { calls.add(\"derived\"); }\n"
+                + "}\n");
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+
+        final Object derived = invoke(compilation.loadClass("sample.DerivedBuilder").getConstructor().newInstance(),
+                "build");
+
+        assertEquals(Arrays.asList("base", "derived"), derived.getClass().getField("calls").get(derived));
+    }
+
+    @Test
+    public void buildStaticMemberClass() throws Exception {
+        final Compilation compilation = compile("sample.Outer", "package sample;\n"
+                + "public class Outer {\n"
+                + "    @com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "    public static class Inner {\n"
+                + "        private String value;\n"
+                + "        public String getValue() { return value; }\n"
+                + "        public void setValue(String value) { this.value = value; }\n"
+                + "    }\n"
+                + "}\n");
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+
+        final Class<?> builderClass = compilation.loadClass("sample.OuterInnerBuilder");
+        assertTrue(Modifier.isPublic(builderClass.getModifiers()));
+        final Object builder = builderClass.getConstructor().newInstance();
+        invoke(builder, "withValue", "Hello");
+        final Object inner = invoke(builder, "build");
+
+        assertEquals(compilation.loadClass("sample.Outer$Inner"), inner.getClass());
+        assertEquals("Hello", invoke(inner, "getValue"));
+    }
+
+    @Test
+    public void copyBooleanPropertyWithIsGetter() throws Exception {
+        final Compilation compilation = compile("sample.Flag", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public class Flag {\n"
+                + "    private boolean active;\n"
+                + "    public boolean isActive() { return active; }\n"
+                + "    public void setActive(boolean active) { this.active = active; }\n"
+                + "}\n");
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+        final Class<?> flagClass = compilation.loadClass("sample.Flag");
+        final Object original = flagClass.getConstructor().newInstance();
+        invoke(original, "setActive", true);
+
+        final Object copy = invoke(compilation.loadClass("sample.FlagBuilder").getConstructor(flagClass)
+                .newInstance(original), "build");
+
+        assertNotSame(original, copy);
+        assertEquals(true, invoke(copy, "isActive"));
+    }
+
+    @Test
+    public void buildPackagePrivateClass() throws Exception {
+        final Compilation compilation = compile("sample.Hidden", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "class Hidden {\n"
+                + "    String value;\n"
+                + "    void setValue(String value) { this.value = value; }\n"
+                + "}\n");
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+
+        final Class<?> builderClass = compilation.loadClass("sample.HiddenBuilder");
+        assertFalse(Modifier.isPublic(builderClass.getModifiers()));
+        final Constructor<?> constructor = builderClass.getDeclaredConstructor();
+        assertFalse(Modifier.isPublic(constructor.getModifiers()));
+        constructor.setAccessible(true);
+        final Object builder = constructor.newInstance();
+        final Method withValue = builderClass.getMethod("withValue", String.class);
+        withValue.setAccessible(true);
+        withValue.invoke(builder, "Hello");
+        final Method build = builderClass.getMethod("build");
+        build.setAccessible(true);
+        final Object hidden = build.invoke(builder);
+
+        final Field value = hidden.getClass().getDeclaredField("value");
+        value.setAccessible(true);
+        assertEquals("Hello", value.get(hidden));
+    }
+
+    @Test
+    public void copyEntity() throws Exception {
+        final Compilation compilation = compile("sample.Customer", CUSTOMER);
+        assertTrue(compilation.diagnostics.toString(), compilation.success);
+        final Class<?> customerClass = compilation.loadClass("sample.Customer");
+        final Object original = customerClass.getConstructor(Long.class, Long.class).newInstance(1L, 2L);
+        invoke(original, "setName", "Acme");
+
+        final Class<?> builderClass = compilation.loadClass("sample.CustomerBuilder");
+        final Object copy = invoke(builderClass.getConstructor(customerClass).newInstance(original), "build");
+
+        assertEquals(AbstractEntityBuilder.class, builderClass.getSuperclass());
+        assertNotSame(original, copy);
+        assertEquals(1L, invoke(copy, "getId"));
+        assertEquals(2L, invoke(copy, "getOptLockVersion"));
+        assertEquals("Acme", invoke(copy, "getName"));
+    }
+
+    @Test
+    public void entityBuilderUsesNonReflectiveConstructor() throws Exception {
+        final Compilation compilation = compile("sample.Customer", CUSTOMER);
+        final String source = compilation.generatedSource("sample.CustomerBuilder");
+
+        assertTrue(source, source.contains("super(new sample.Customer(), null);"));
+        assertTrue(source, source.contains("super(new sample.Customer(), original);"));
+    }
+
+    @Test
+    public void rejectAbstractClass() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public abstract class Sample { }\n"),
+                "cannot be applied to abstract classes");
+    }
+
+    @Test
+    public void rejectGenericClass() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public class Sample<T> { }\n"),
+                "cannot be applied to generic classes");
+    }
+
+    @Test
+    public void rejectInnerClass() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "public class Sample {\n"
+                + "    @com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "    public class Inner { }\n"
+                + "}\n"),
+                "can only be applied to top level classes and static member classes");
+    }
+
+    @Test
+    public void rejectPrivateClass() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "public class Sample {\n"
+                + "    @com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "    private static class Nested { public Nested() { } }\n"
+                + "}\n"),
+                "cannot be applied to private classes or classes nested in private classes");
+    }
+
+    @Test
+    public void rejectMissingNoArgConstructor() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public class Sample { public Sample(String s) { } }\n"),
+                "requires a non-private no-argument constructor");
+    }
+
+    @Test
+    public void rejectPrivateNoArgConstructor() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public class Sample { private Sample() { } }\n"),
+                "requires a non-private no-argument constructor");
+    }
+
+    @Test
+    public void rejectValidatorWithArguments() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "@GenerateBuilder\n"
+                + "public class Sample { @ValidateOnBuild void validate(String s) { } }\n"),
+                "@ValidateOnBuild methods must be non-private, non-static and take no arguments");
+    }
+
+    @Test
+    public void rejectInaccessibleValidatorOfPrecompiledSuperclass() throws Exception {
+        assertTrue(compile("base.Base", "package base;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "public class Base { @ValidateOnBuild protected void validate() { } }\n").success);
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "@com.github.peholmst.patterns.builders.GenerateBuilder\n"
+                + "public class Sample extends base.Base { }\n"),
+                "@ValidateOnBuild method base.Base.validate() is not accessible from the generated builder in package sample");
+    }
+
+    @Test
+    public void rejectStaticValidator() throws Exception {
+        assertError(compile("sample.Sample", "package sample;\n"
+                + "import com.github.peholmst.patterns.builders.*;\n"
+                + "@GenerateBuilder\n"
+                + "public class Sample { @ValidateOnBuild static void validate() { } }\n"),
+                "@ValidateOnBuild methods must be non-private, non-static and take no arguments");
+    }
+}
@@ -54,6 +54,25 @@ public abstract class AbstractEntityBuilder<E extends AbstractEntity, B extends
      */
     public AbstractEntityBuilder(E original) {
         this();
+        copy(original);
+    }
+
+    /**
+     * Creates a new builder working on the specified entity instance, which
+     * is made a copy of the original entity. Unlike the other constructors,
+     * this one does not use reflection to create the entity and is the one
+     * used by builders generated by the {@code builders} module.
+     *
+     * @param entity the new entity to build, must not be {@code null}.
+     * @param original the original entity to copy, is ignored if {@code null}.
+     */
+    protected AbstractEntityBuilder(E entity, E original) {
+        assert entity != null : "entity must not be null";
+        this.entity = entity;
+        copy(original);
+    }
+
+    private void copy(E original) {
         if (original != null) {
             entity.setId(original.getId());
             entity.setOptLockVersion(original.getOptLockVersion());